@@ -0,0 +1,308 @@
+package view;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.CoinTossingSimulation;
+
+/**
+ * Renders the coin tossing simulation into an offscreen image without creating
+ * any chart traces. Like {@link Graph}, the horizontal axis represents the
+ * number of tosses and the vertical axis the number of heads minus the number
+ * of tails. Every pixel column keeps the minimum and maximum walk value of the
+ * head and the tail segments which fall into it, so the memory consumption only
+ * depends on the image width and not on the number of tosses. If there are
+ * fewer tosses than pixel columns, the walk values are interpolated along each
+ * segment. The columns are rasterized in parallel tiles.
+ *
+ * @author Fabian Foerg
+ */
+public final class OffscreenGraph implements Observer {
+    private static final int BACKGROUND_COLOR = Color.WHITE.getRGB();
+    private static final int AXIS_COLOR = Color.LIGHT_GRAY.getRGB();
+    private static final int HEAD_COLOR = Color.GREEN.darker().getRGB();
+    private static final int TAIL_COLOR = Color.RED.getRGB();
+    private static final int TILES_PER_THREAD = 4;
+
+    private final int numberOfTosses;
+    private final int width;
+    private final int height;
+    private final double[] headMin;
+    private final double[] headMax;
+    private final double[] tailMin;
+    private final double[] tailMax;
+    private final ExecutorService executor;
+    private final int numberOfTiles;
+    private int currentVertValue;
+    private int currentHorValue;
+    private int minVertValue;
+    private int maxVertValue;
+
+    /**
+     * Creates a new offscreen graph.
+     *
+     * @param numberOfTosses
+     *            the number of tosses which the horizontal axis spans.
+     * @param width
+     *            the width of the image in pixels.
+     * @param height
+     *            the height of the image in pixels.
+     */
+    public OffscreenGraph(int numberOfTosses, int width, int height) {
+        if (numberOfTosses < 1) {
+            throw new IllegalArgumentException(
+                    "numberOfTosses must be at least 1!");
+        }
+        if ((width < 1) || (height < 1)) {
+            throw new IllegalArgumentException(
+                    "width and height must be at least 1!");
+        }
+
+        this.numberOfTosses = numberOfTosses;
+        this.width = width;
+        this.height = height;
+        headMin = new double[width];
+        headMax = new double[width];
+        tailMin = new double[width];
+        tailMax = new double[width];
+        Arrays.fill(headMin, Double.POSITIVE_INFINITY);
+        Arrays.fill(headMax, Double.NEGATIVE_INFINITY);
+        Arrays.fill(tailMin, Double.POSITIVE_INFINITY);
+        Arrays.fill(tailMax, Double.NEGATIVE_INFINITY);
+
+        int numberOfThreads = Runtime.getRuntime().availableProcessors();
+        executor = Executors.newFixedThreadPool(numberOfThreads);
+        numberOfTiles = Math.min(width, numberOfThreads * TILES_PER_THREAD);
+        currentVertValue = 0;
+        currentHorValue = 0;
+        minVertValue = 0;
+        maxVertValue = 0;
+    }
+
+    @Override
+    public void update(Observable ob, Object headOrTail) {
+        final CoinTossingSimulation.COIN var = ((headOrTail != null) && headOrTail instanceof CoinTossingSimulation.COIN) ? (CoinTossingSimulation.COIN) headOrTail
+                : null;
+
+        update(var);
+    }
+
+    /**
+     * A coin was tossed and the column statistics are updated correspondingly.
+     * Tosses beyond the number of tosses given at construction time are
+     * ignored.
+     *
+     * @param headOrTail
+     *            the coin value that was tossed; is either a head or a tail.
+     */
+    public void update(CoinTossingSimulation.COIN headOrTail) {
+        if (currentHorValue >= numberOfTosses) {
+            return;
+        }
+
+        final int previousVertValue = currentVertValue;
+        currentHorValue++;
+
+        if (CoinTossingSimulation.COIN.HEAD.equals(headOrTail)) {
+            currentVertValue++;
+        } else {
+            currentVertValue--;
+        }
+
+        minVertValue = Math.min(minVertValue, currentVertValue);
+        maxVertValue = Math.max(maxVertValue, currentVertValue);
+
+        // The two end points differ by one, so their sum is never zero. The
+        // segment belongs to a head trace iff it lies above the horizontal
+        // axis, just like in Graph.
+        final boolean head = (previousVertValue + currentVertValue) > 0;
+        final double[] columnMin = head ? headMin : tailMin;
+        final double[] columnMax = head ? headMax : tailMax;
+
+        // Toss t lies at the horizontal pixel position t * (width - 1) /
+        // numberOfTosses and column x covers the positions from x - 0.5 to
+        // x + 0.5. Positions are measured in units of 1 / (2 *
+        // numberOfTosses) pixels, so that all boundaries are integers.
+        final long start = position(currentHorValue - 1);
+        final long end = position(currentHorValue);
+        final long length = end - start;
+        final int firstColumn = column(start);
+        final int lastColumn = column(end);
+
+        for (int x = firstColumn; x <= lastColumn; x++) {
+            double from = previousVertValue;
+            double to = currentVertValue;
+
+            if (length > 0) {
+
+                // clip the segment to the column and interpolate
+                long left = Math.max(start, (2L * x - 1) * numberOfTosses);
+                long right = Math.min(end, (2L * x + 1) * numberOfTosses);
+                from = previousVertValue + (to - previousVertValue)
+                        * (left - start) / length;
+                to = previousVertValue + (to - previousVertValue)
+                        * (right - start) / length;
+            }
+
+            columnMin[x] = Math.min(columnMin[x], Math.min(from, to));
+            columnMax[x] = Math.max(columnMax[x], Math.max(from, to));
+        }
+    }
+
+    /**
+     * Returns the horizontal position of the given toss in units of 1 / (2 *
+     * numberOfTosses) pixels.
+     *
+     * @param toss
+     *            the toss, between 0 and the number of tosses.
+     * @return the horizontal position of the given toss.
+     */
+    private long position(int toss) {
+        return 2L * toss * (width - 1);
+    }
+
+    /**
+     * Returns the pixel column which contains the given horizontal position.
+     *
+     * @param position
+     *            the horizontal position in units of 1 / (2 * numberOfTosses)
+     *            pixels.
+     * @return the pixel column which contains the given position.
+     */
+    private int column(long position) {
+        return (int) Math.min(width - 1, (position + numberOfTosses)
+                / (2L * numberOfTosses));
+    }
+
+    /**
+     * Returns the number of tosses which were drawn so far.
+     *
+     * @return the number of tosses which were drawn so far.
+     */
+    public int getNumberOfTossesDrawn() {
+        return currentHorValue;
+    }
+
+    /**
+     * Rasterizes the tosses drawn so far into a new image. The horizontal axis
+     * always spans all tosses, while the vertical axis spans the walk values
+     * seen so far. Hence, this method may be called repeatedly to obtain the
+     * frames of an animation.
+     *
+     * @return the rendered image.
+     * @throws InterruptedException
+     *             if the current thread was interrupted while waiting for the
+     *             tiles to be rendered.
+     */
+    public BufferedImage render() throws InterruptedException {
+        final BufferedImage image = new BufferedImage(width, height,
+                BufferedImage.TYPE_INT_RGB);
+        final int[] pixels = ((DataBufferInt) image.getRaster()
+                .getDataBuffer()).getData();
+        final int top = maxVertValue;
+        final int span = Math.max(1, maxVertValue - minVertValue);
+        List<Future<Void>> tiles = new ArrayList<Future<Void>>(numberOfTiles);
+
+        for (int tile = 0; tile < numberOfTiles; tile++) {
+            final int fromColumn = (int) (((long) tile * width) / numberOfTiles);
+            final int toColumn = (int) (((long) (tile + 1) * width) / numberOfTiles);
+
+            tiles.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    renderTile(pixels, fromColumn, toColumn, top, span);
+                    return null;
+                }
+            }));
+        }
+
+        try {
+            for (Future<Void> tile : tiles) {
+                tile.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rendering a tile failed!",
+                    e.getCause());
+        }
+
+        return image;
+    }
+
+    /**
+     * Rasterizes the columns of a single tile. Tiles do not overlap, so
+     * several tiles may be rendered into the same pixel array concurrently.
+     *
+     * @param pixels
+     *            the pixels of the image.
+     * @param fromColumn
+     *            the first column of the tile, inclusive.
+     * @param toColumn
+     *            the last column of the tile, exclusive.
+     * @param top
+     *            the walk value at the top of the image.
+     * @param span
+     *            the walk value range which the image height covers.
+     */
+    private void renderTile(int[] pixels, int fromColumn, int toColumn,
+            int top, int span) {
+        for (int y = 0; y < height; y++) {
+            Arrays.fill(pixels, y * width + fromColumn, y * width + toColumn,
+                    BACKGROUND_COLOR);
+        }
+
+        final int axisRow = row(0, top, span);
+        Arrays.fill(pixels, axisRow * width + fromColumn, axisRow * width
+                + toColumn, AXIS_COLOR);
+
+        for (int x = fromColumn; x < toColumn; x++) {
+            if (tailMin[x] <= tailMax[x]) {
+                drawColumn(pixels, x, row(tailMax[x], top, span),
+                        row(tailMin[x], top, span), TAIL_COLOR);
+            }
+            if (headMin[x] <= headMax[x]) {
+                drawColumn(pixels, x, row(headMax[x], top, span),
+                        row(headMin[x], top, span), HEAD_COLOR);
+            }
+        }
+    }
+
+    /**
+     * Returns the pixel row of the given walk value.
+     *
+     * @param vertValue
+     *            the walk value.
+     * @param top
+     *            the walk value at the top of the image.
+     * @param span
+     *            the walk value range which the image height covers.
+     * @return the pixel row of the given walk value.
+     */
+    private int row(double vertValue, int top, int span) {
+        return (int) Math.round((top - vertValue) * (height - 1) / span);
+    }
+
+    private void drawColumn(int[] pixels, int x, int fromRow, int toRow,
+            int color) {
+        for (int y = fromRow; y <= toRow; y++) {
+            pixels[y * width + x] = color;
+        }
+    }
+
+    /**
+     * Frees all resources consumed by this graph.
+     */
+    public void free() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,164 @@
+package view;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Observable;
+import java.util.Observer;
+
+import javax.imageio.ImageIO;
+
+import model.CoinTossingSimulation;
+
+/**
+ * Renders a coin tossing simulation offscreen into a PNG image or into a
+ * sequence of PNG frames, without displaying the GUI.
+ *
+ * @author Fabian Foerg
+ */
+public final class Render {
+    private static final String USAGE = "Usage: java view.Render <tosses> <width> <height> <output.png> [<frames> [<seed>]]";
+
+    /**
+     * Runs the simulation and writes the image. If more than one frame is
+     * requested, the frames are written next to the output file, numbered
+     * consecutively, e.g. walk-00001.png, walk-00002.png, and so on.
+     *
+     * @param args
+     *            the number of tosses, the image width, the image height, the
+     *            output file and optionally the number of frames and the seed.
+     */
+    public static void main(String[] args) {
+        if ((args.length < 4) || (args.length > 6)) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+
+        final int numberOfTosses;
+        final int width;
+        final int height;
+        final File output = new File(args[3]);
+        final int frames;
+        final CoinTossingSimulation simulation;
+        final OffscreenGraph graph;
+
+        try {
+            numberOfTosses = Integer.parseInt(args[0]);
+            width = Integer.parseInt(args[1]);
+            height = Integer.parseInt(args[2]);
+            frames = (args.length > 4) ? Integer.parseInt(args[4]) : 1;
+
+            if (frames < 1) {
+                throw new IllegalArgumentException(
+                        "frames must be at least 1!");
+            }
+
+            simulation = (args.length > 5) ? new CoinTossingSimulation(
+                    numberOfTosses, Long.parseLong(args[5]))
+                    : new CoinTossingSimulation(numberOfTosses);
+            graph = new OffscreenGraph(numberOfTosses, width, height);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        try {
+            if (frames == 1) {
+                simulation.addObserver(graph);
+                simulation.startGameSimulation();
+                ImageIO.write(graph.render(), "png", output);
+            } else {
+                simulation.addObserver(new FrameWriter(graph, numberOfTosses,
+                        frames, output));
+                simulation.startGameSimulation();
+
+                // the frame writer stops the simulation if it is interrupted
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write image: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Rendering was interrupted!");
+            System.exit(1);
+        } catch (FrameException e) {
+            System.err.println("Could not write frame: "
+                    + e.getCause().getMessage());
+            System.exit(1);
+        } finally {
+            graph.free();
+        }
+    }
+
+    /**
+     * Forwards the tosses to an offscreen graph and writes a frame whenever
+     * another fraction of all tosses has been drawn.
+     */
+    private static final class FrameWriter implements Observer {
+        private final OffscreenGraph graph;
+        private final int numberOfTosses;
+        private final int frames;
+        private final String prefix;
+        private final String suffix;
+        private int nextFrame;
+
+        private FrameWriter(OffscreenGraph graph, int numberOfTosses,
+                int frames, File output) {
+            this.graph = graph;
+            this.numberOfTosses = numberOfTosses;
+            this.frames = frames;
+
+            String path = output.getPath();
+            int dot = path.lastIndexOf('.');
+
+            if (dot > path.lastIndexOf(File.separatorChar)) {
+                prefix = path.substring(0, dot);
+                suffix = path.substring(dot);
+            } else {
+                prefix = path;
+                suffix = ".png";
+            }
+
+            nextFrame = 1;
+        }
+
+        @Override
+        public void update(Observable ob, Object headOrTail) {
+            graph.update(ob, headOrTail);
+
+            // several frames map to the same toss if there are more frames
+            // than tosses
+            while ((nextFrame <= frames)
+                    && (graph.getNumberOfTossesDrawn() >= (int) (((long) numberOfTosses * nextFrame) / frames))) {
+                try {
+                    ImageIO.write(graph.render(), "png", new File(String
+                            .format("%s-%05d%s", prefix, nextFrame, suffix)));
+                } catch (IOException e) {
+                    throw new FrameException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    ((CoinTossingSimulation) ob).stopSimulation();
+                    return;
+                }
+
+                nextFrame++;
+            }
+        }
+    }
+
+    /**
+     * Signals that a frame could not be written while the simulation was
+     * running.
+     */
+    private static final class FrameException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private FrameException(IOException cause) {
+            super(cause);
+        }
+    }
+}